@@ -11,18 +11,19 @@ import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.TimeUtils;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.TreeMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
 
 import static com.hzh.chip8emu.Const.*;
 
 public class Chip8Emu extends ApplicationAdapter implements InputProcessor  {
 
+    private static final String TAG = "Chip8Emu";
+
     private float width;
     private float height;
     private int pixelSize;
@@ -30,19 +31,33 @@ public class Chip8Emu extends ApplicationAdapter implements InputProcessor  {
     private byte[] vRAM;
     private byte[] key;
     private Chip8VM vm;
+    private String romQuery;
+    private RomLibrary romLibrary;
 
     private int fps;
     private long lastTime;
     private static Sound beep;
     private ShapeRenderer shapeRenderer;
     private  Map<Integer, Integer> keyMap;
-    private ExecutorService service = Executors.newSingleThreadExecutor();
+    private CycleScheduler scheduler;
+    // null: the VM is run from render()
+    private CpuDriver cpuDriver;
 
     public Chip8Emu(float width, Chip8VM vm) {
+        this(width, vm, DEFAULT_ROM);
+    }
+
+    public Chip8Emu(float width, Chip8VM vm, String romQuery) {
+        this(width, vm, romQuery, null);
+    }
+
+    public Chip8Emu(float width, Chip8VM vm, String romQuery, CpuDriver cpuDriver) {
         this.width = width;
         this.height = width / RES_WIDTH * RES_HEIGHT;
         this.pixelSize = (int) (width / RES_WIDTH);
         this.vm = vm;
+        this.romQuery = romQuery;
+        this.cpuDriver = cpuDriver;
     }
 
     public static void beep() {
@@ -57,7 +72,16 @@ public class Chip8Emu extends ApplicationAdapter implements InputProcessor  {
         shapeRenderer.setColor(Color.WHITE);
 
         beep = Gdx.audio.newSound(Gdx.files.internal("beep.mp3"));
-        startEmu(Gdx.files.internal("roms/games/Pong 2 (Pong hack) [David Winter, 1997].ch8").readBytes());
+        romLibrary = RomLibrary.open();
+        RomProfile profile = romLibrary.find(romQuery);
+        if (profile == null) {
+            Gdx.app.error(TAG, "ROM not found: " + romQuery + ", loading " + DEFAULT_ROM_PATH);
+            profile = romLibrary.find(DEFAULT_ROM_PATH);
+        }
+        if (profile == null) {
+            throw new GdxRuntimeException("ROM not found: " + DEFAULT_ROM_PATH);
+        }
+        startEmu(profile);
         lastTime = System.currentTimeMillis();
     }
 
@@ -81,26 +105,27 @@ public class Chip8Emu extends ApplicationAdapter implements InputProcessor  {
         keyMap.put(Input.Keys.V, 0xF);
     }
 
-    private void startEmu(byte[] rom) {
-        vm.load(rom);
+    private void startEmu(RomProfile profile) {
+        vm.load(romLibrary.readRom(profile));
+        // reading may have refreshed a stale profile
+        profile = romLibrary.getProfile(profile.getPath());
+        Gdx.app.log(TAG, "loading " + profile);
+        vm.setQuirks(profile.isVyShift(), profile.isFixedI());
+        keyMap.putAll(profile.getKeyMap());
         this.vRAM = vm.getGfx();
         this.key = vm.getKey();
 
-        service.execute(() -> {
-            while (true) {
-                // run next
-                vm.cycle();
-                try {
-                    TimeUnit.MILLISECONDS.sleep(3);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        });
+        scheduler = new CycleScheduler(vm, profile.getClockHz());
+        if (cpuDriver != null) {
+            cpuDriver.start(scheduler);
+        }
     }
 
     @Override
     public void render() {
+        if (cpuDriver == null) {
+            scheduler.run(TimeUtils.nanoTime());
+        }
 
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -127,6 +152,9 @@ public class Chip8Emu extends ApplicationAdapter implements InputProcessor  {
 
     @Override
     public void dispose() {
+        if (cpuDriver != null) {
+            cpuDriver.dispose();
+        }
         shapeRenderer.dispose();
     }
 
@@ -1,9 +1,8 @@
 package com.hzh.chip8emu;
 
-import com.badlogic.gdx.audio.Sound;
+import com.badlogic.gdx.math.MathUtils;
 
 import java.util.Arrays;
-import java.util.concurrent.ThreadLocalRandom;
 
 import static com.hzh.chip8emu.Const.*;
 
@@ -25,6 +24,9 @@ public class Chip8VM {
 
     private short[] stack;
 
+    private boolean vyShift;
+    private boolean fixedI;
+
 
     public void load(byte[] rom) {
 
@@ -73,7 +75,7 @@ public class Chip8VM {
                         break;
 
                     default:
-                        System.out.println(String.format("Unknown opcode [0x0000]: 0x%X", opcode));
+                        System.out.println("Unknown opcode [0x0000]: 0x" + hex(opcode));
                 }
                 break;
 
@@ -159,6 +161,8 @@ public class Chip8VM {
                         break;
 
                     case 0x0006: // 0x8XY6: Shifts VX right by one. VF is set to the value of the least significant bit of VX before the shift
+                        if(vyShift)
+                            V[(opcode & 0x0F00) >> 8] = V[(opcode & 0x00F0) >> 4];
                         V[0xF] = (byte) (V[(opcode & 0x0F00) >> 8] & 0x1);
                         V[(opcode & 0x0F00) >> 8] >>= 1;
                         pc += 2;
@@ -174,13 +178,15 @@ public class Chip8VM {
                         break;
 
                     case 0x000E: // 0x8XYE: Shifts VX left by one. VF is set to the value of the most significant bit of VX before the shift
+                        if(vyShift)
+                            V[(opcode & 0x0F00) >> 8] = V[(opcode & 0x00F0) >> 4];
                         V[0xF] = (byte) (V[(opcode & 0x0F00) >> 8] >> 7);
                         V[(opcode & 0x0F00) >> 8] <<= 1;
                         pc += 2;
                         break;
 
                     default:
-                        System.out.println(String.format("Unknown opcode [0x8000]: 0x%X", opcode));
+                        System.out.println("Unknown opcode [0x8000]: 0x" + hex(opcode));
                 }
                 break;
 
@@ -201,7 +207,7 @@ public class Chip8VM {
                 break;
 
             case 0xC000: // CXNN: Sets VX to a random number and NN
-                V[(opcode & 0x0F00) >> 8] = (byte) ((ThreadLocalRandom.current().nextInt() % 0xFF) & (opcode & 0x00FF));
+                V[(opcode & 0x0F00) >> 8] = (byte) (MathUtils.random(0xFF) & (opcode & 0x00FF));
                 pc += 2;
                 break;
 
@@ -256,7 +262,7 @@ public class Chip8VM {
                         break;
 
                     default:
-                        System.out.println(String.format("Unknown opcode [0xE000]: 0x%X", opcode));
+                        System.out.println("Unknown opcode [0xE000]: 0x" + hex(opcode));
                 }
                 break;
 
@@ -323,7 +329,8 @@ public class Chip8VM {
                     case 0x0055: // FX55: Stores V0 to VX in memory starting at address I					
                         System.arraycopy(V, 0, memory, I, ((opcode & 0x0F00) >> 8));
                         // On the original interpreter, when the operation is done, I = I + X + 1.
-                        I += ((opcode & 0x0F00) >> 8) + 1;
+                        if(!fixedI)
+                            I += ((opcode & 0x0F00) >> 8) + 1;
                         pc += 2;
                         break;
 
@@ -331,20 +338,23 @@ public class Chip8VM {
 
                         System.arraycopy(memory, I, V, 0, ((opcode & 0x0F00) >> 8));
                         // On the original interpreter, when the operation is done, I = I + X + 1.
-                        I += ((opcode & 0x0F00) >> 8) + 1;
+                        if(!fixedI)
+                            I += ((opcode & 0x0F00) >> 8) + 1;
                         pc += 2;
                         break;
 
                     default:
-                        System.out.println(String.format("Unknown opcode [0xF000]: 0x%X", opcode));
+                        System.out.println("Unknown opcode [0xF000]: 0x" + hex(opcode));
                 }
                 break;
 
             default:
-                System.out.println(String.format("Unknown opcode: 0x%X", opcode));
+                System.out.println("Unknown opcode: 0x" + hex(opcode));
         }
+    }
 
-        // Update timers
+    // Called at TIMER_HZ, independent of the cpu clock
+    public void tickTimers() {
         if(delayTimer > 0)
             --delayTimer;
 
@@ -358,11 +368,21 @@ public class Chip8VM {
         }
     }
 
+    // String.format is not available on GWT
+    private static String hex(short value) {
+        return Integer.toHexString(value & 0xFFFF).toUpperCase();
+    }
+
     public boolean isDrawFlag() {
         return drawFlag;
     }
 
 
+    public void setQuirks(boolean vyShift, boolean fixedI) {
+        this.vyShift = vyShift;
+        this.fixedI = fixedI;
+    }
+
     public void setKey(byte[] key) {
         this.key = key;
     }
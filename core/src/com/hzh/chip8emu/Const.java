@@ -1,10 +1,5 @@
 package com.hzh.chip8emu;
 
-import javafx.scene.input.KeyCode;
-
-import java.util.HashMap;
-import java.util.Map;
-
 public class Const {
 
     public static final int RES_WIDTH = 64;
@@ -16,6 +11,18 @@ public class Const {
     public static final int REGISTER_COUNT = 16;
     public static final int START_ADDRESS = 0x200;
     public static final String PIXEL_PNG = "pixel.png";
+    public static final int DEFAULT_CLOCK_HZ = 333;
+    public static final int MIN_CLOCK_HZ = 1;
+    public static final int MAX_CLOCK_HZ = 5000;
+    public static final int TIMER_HZ = 60;
+    public static final long MAX_CATCH_UP_MILLIS = 100;
+    public static final String ROM_DIR = "roms";
+    public static final String ROM_EXTENSION = "ch8";
+    public static final String ROM_NOTES_EXTENSION = "txt";
+    public static final String ROM_LIST_FILE = "roms.list";
+    public static final String ROM_INDEX_FILE = ".chip8-emu/roms.index";
+    public static final String DEFAULT_ROM = "Pong 2 (Pong hack)";
+    public static final String DEFAULT_ROM_PATH = "roms/games/Pong 2 (Pong hack) [David Winter, 1997].ch8";
 
 
 
@@ -0,0 +1,13 @@
+package com.hzh.chip8emu;
+
+/**
+ * Runs the VM outside of the render loop, e.g. on a dedicated thread.
+ * Without one Chip8Emu runs the scheduler from render(), which is the only
+ * option on GWT where threads are not available.
+ */
+public interface CpuDriver {
+
+    void start(CycleScheduler scheduler);
+
+    void dispose();
+}
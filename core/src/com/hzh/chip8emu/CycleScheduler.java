@@ -0,0 +1,78 @@
+package com.hzh.chip8emu;
+
+import static com.hzh.chip8emu.Const.*;
+
+/**
+ * Turns elapsed time into cpu cycles and TIMER_HZ timer ticks, so the VM
+ * keeps the same speed whether it is driven from render() or from a thread.
+ *
+ * Elapsed time is capped at MAX_CATCH_UP_MILLIS per call: after a stall
+ * (tab in background, debugger, GC) the VM skips ahead instead of running
+ * seconds worth of cycles in one frame. With the clock clamped to
+ * MAX_CLOCK_HZ that bounds a call to MAX_CLOCK_HZ * MAX_CATCH_UP_MILLIS
+ * cycles.
+ *
+ * Timer ticks are interleaved with the cycles due before them, so a ROM
+ * busy-waiting on the delay timer sees it count down between instructions.
+ */
+public class CycleScheduler {
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long MAX_CATCH_UP_NANOS = MAX_CATCH_UP_MILLIS * 1000000L;
+
+    private Chip8VM vm;
+    private int clockHz;
+
+    // nanoTime() may be negative, so no sentinel value for lastTime
+    private boolean started;
+    private long lastTime;
+    // leftover time, in nanos * hz, carried to the next call
+    private long cycleRemainder;
+    private long timerRemainder;
+
+    public CycleScheduler(Chip8VM vm, int clockHz) {
+        this.vm = vm;
+        this.clockHz = Math.max(MIN_CLOCK_HZ, Math.min(clockHz, MAX_CLOCK_HZ));
+    }
+
+    /**
+     * Runs the cycles and timer ticks due since the previous call.
+     *
+     * @param now current time in nanos
+     * @return the number of cycles run
+     */
+    public int run(long now) {
+        if (!started) {
+            started = true;
+            lastTime = now;
+            return 0;
+        }
+        long elapsed = Math.min(now - lastTime, MAX_CATCH_UP_NANOS);
+        lastTime = now;
+
+        int cycles = 0;
+        while (elapsed > 0) {
+            // time left until the next timer tick, rounded up
+            long slice = Math.min(elapsed, (NANOS_PER_SECOND - timerRemainder + TIMER_HZ - 1) / TIMER_HZ);
+            elapsed -= slice;
+            cycles += runCycles(slice);
+
+            timerRemainder += slice * TIMER_HZ;
+            if (timerRemainder >= NANOS_PER_SECOND) {
+                timerRemainder -= NANOS_PER_SECOND;
+                vm.tickTimers();
+            }
+        }
+        return cycles;
+    }
+
+    private int runCycles(long nanos) {
+        cycleRemainder += nanos * clockHz;
+        int cycles = (int) (cycleRemainder / NANOS_PER_SECOND);
+        cycleRemainder %= NANOS_PER_SECOND;
+        for (int i = 0; i < cycles; i++) {
+            vm.cycle();
+        }
+        return cycles;
+    }
+}
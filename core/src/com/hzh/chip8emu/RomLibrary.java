@@ -0,0 +1,255 @@
+package com.hzh.chip8emu;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hzh.chip8emu.Const.*;
+
+/**
+ * Index of every ROM under the roms directory.
+ *
+ * The first launch reads the ROM_LIST_FILE manifest (generated by the core
+ * romList task) and walks the directory tree where listing is supported,
+ * hashes each ROM and parses its notes, then writes the result to a local
+ * index file. Later launches only
+ * read that file. A ROM whose content or notes no longer match their hash
+ * is re-profiled when it is loaded, and a lookup that misses (ROM added or
+ * removed since) triggers one rescan.
+ */
+public class RomLibrary {
+
+    private static final String TAG = "RomLibrary";
+    private static final String INDEX_HEADER = "# chip8-emu rom index v3";
+    private static final int INDEX_FIELDS = 9;
+
+    private FileHandle romDir;
+    // null when the backend has no external storage (GWT), always rescan then
+    private FileHandle indexFile;
+    private Map<String, RomProfile> profiles = new TreeMap<>();
+    // the tree has been scanned by this instance, the index is up to date
+    private boolean scanned;
+
+    public RomLibrary(FileHandle romDir, FileHandle indexFile) {
+        this.romDir = romDir;
+        this.indexFile = indexFile;
+    }
+
+    public static RomLibrary open() {
+        // external (user home on desktop) keeps the index out of the assets dir, which is the working dir of desktop:run
+        FileHandle indexFile = Gdx.files.isExternalStorageAvailable() ? Gdx.files.external(ROM_INDEX_FILE) : null;
+        RomLibrary library = new RomLibrary(Gdx.files.internal(ROM_DIR), indexFile);
+        library.load();
+        return library;
+    }
+
+    public void load() {
+        if (!readIndex()) {
+            rescan();
+        }
+    }
+
+    public void rescan() {
+        long start = System.currentTimeMillis();
+        profiles.clear();
+        scanList(romDir.child(ROM_LIST_FILE));
+        scan(romDir);
+        scanned = true;
+        writeIndex();
+        Gdx.app.log(TAG, "scanned " + profiles.size() + " roms in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void scanList(FileHandle listFile) {
+        if (!listFile.exists()) {
+            return;
+        }
+        for (String line : listFile.readString("UTF-8").split("\r?\n")) {
+            if (!line.isEmpty()) {
+                add(romDir.child(line));
+            }
+        }
+    }
+
+    // picks up ROMs missing from the list, list() is empty in a jar and flat on GWT
+    private void scan(FileHandle dir) {
+        for (FileHandle file : dir.list()) {
+            if (file.isDirectory()) {
+                scan(file);
+            } else if (ROM_EXTENSION.equalsIgnoreCase(file.extension()) && !profiles.containsKey(file.path())) {
+                add(file);
+            }
+        }
+    }
+
+    private RomProfile add(FileHandle file) {
+        try {
+            RomProfile profile = profile(file, file.readBytes());
+            profiles.put(profile.getPath(), profile);
+            return profile;
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "skipping unreadable rom " + file.path(), e);
+            return null;
+        }
+    }
+
+    private RomProfile profile(FileHandle file, byte[] rom) {
+        RomProfile profile = new RomProfile(file.path(), rom.length, hash(rom));
+        FileHandle notes = notesOf(file);
+        if (notes.exists()) {
+            profile.setNotesHash(hash(notes.readBytes()));
+            profile.parseNotes(notes.readString());
+        }
+        return profile;
+    }
+
+    private static FileHandle notesOf(FileHandle rom) {
+        return rom.sibling(rom.nameWithoutExtension() + "." + ROM_NOTES_EXTENSION);
+    }
+
+    private static String notesHash(FileHandle notes) {
+        return notes.exists() ? hash(notes.readBytes()) : "";
+    }
+
+    /**
+     * Finds a ROM by path, content hash or (case-insensitive) part of its name.
+     * Rescans once if it is not indexed or its file is gone, then falls back
+     * to reading the query as an internal path.
+     */
+    public RomProfile find(String query) {
+        RomProfile profile = lookup(query);
+        if ((profile == null || !Gdx.files.internal(profile.getPath()).exists()) && !scanned) {
+            Gdx.app.log(TAG, "rom index out of date, rescanning");
+            rescan();
+            profile = lookup(query);
+        }
+        if (profile == null && Gdx.files.internal(query).exists()) {
+            profile = add(Gdx.files.internal(query));
+            writeIndex();
+        }
+        return profile;
+    }
+
+    private RomProfile lookup(String query) {
+        if (profiles.containsKey(query)) {
+            return profiles.get(query);
+        }
+        String lowerQuery = query.toLowerCase();
+        for (RomProfile profile : profiles.values()) {
+            if (profile.getHash().equals(lowerQuery)) {
+                return profile;
+            }
+        }
+        for (RomProfile profile : profiles.values()) {
+            if (profile.getName().toLowerCase().contains(lowerQuery)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reads the ROM bytes, refreshing its profile if the ROM or its notes have
+     * changed since it was indexed. Use getProfile() afterwards for the
+     * current settings.
+     */
+    public byte[] readRom(RomProfile profile) {
+        FileHandle file = Gdx.files.internal(profile.getPath());
+        byte[] rom = file.readBytes();
+        if (!hash(rom).equals(profile.getHash()) || !notesHash(notesOf(file)).equals(profile.getNotesHash())) {
+            Gdx.app.log(TAG, "rom changed, refreshing profile: " + profile.getPath());
+            profiles.put(profile.getPath(), profile(file, rom));
+            writeIndex();
+        }
+        return rom;
+    }
+
+    public RomProfile getProfile(String path) {
+        return profiles.get(path);
+    }
+
+    public Collection<RomProfile> getProfiles() {
+        return profiles.values();
+    }
+
+    private boolean readIndex() {
+        if (indexFile == null || !indexFile.exists()) {
+            return false;
+        }
+
+        try {
+            String[] lines = indexFile.readString("UTF-8").split("\n");
+            if (!INDEX_HEADER.equals(lines[0])) {
+                return false;
+            }
+
+            Map<String, RomProfile> indexed = new TreeMap<>();
+            for (int i = 1; i < lines.length; i++) {
+                if (lines[i].isEmpty()) {
+                    continue;
+                }
+                String[] fields = lines[i].split("\t", -1);
+                if (fields.length != INDEX_FIELDS) {
+                    return false;
+                }
+                RomProfile profile = new RomProfile(fields[0], Long.parseLong(fields[1]), fields[2]);
+                profile.setNotesHash(fields[3]);
+                profile.setClockHz(Integer.parseInt(fields[4]));
+                profile.parseQuirks(fields[5]);
+                profile.parseKeyCodes(fields[6]);
+                profile.setTitle(fields[7]);
+                profile.setAuthor(fields[8].isEmpty() ? null : fields[8]);
+                indexed.put(profile.getPath(), profile);
+            }
+            profiles = indexed;
+            return !profiles.isEmpty();
+        } catch (GdxRuntimeException | NumberFormatException e) {
+            Gdx.app.log(TAG, "rom index unreadable, rescanning: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void writeIndex() {
+        if (indexFile == null) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder(INDEX_HEADER).append('\n');
+        for (RomProfile profile : profiles.values()) {
+            sb.append(profile.getPath()).append('\t')
+                    .append(profile.getSize()).append('\t')
+                    .append(profile.getHash()).append('\t')
+                    .append(profile.getNotesHash()).append('\t')
+                    .append(profile.getClockHz()).append('\t')
+                    .append(profile.formatQuirks()).append('\t')
+                    .append(profile.formatKeyCodes()).append('\t')
+                    .append(clean(profile.getTitle())).append('\t')
+                    .append(clean(profile.getAuthor())).append('\n');
+        }
+
+        try {
+            indexFile.writeString(sb.toString(), false, "UTF-8");
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error(TAG, "can not write rom index", e);
+        }
+    }
+
+    private static String clean(String value) {
+        return value == null ? "" : value.replace('\t', ' ');
+    }
+
+    /**
+     * 64-bit FNV-1a, java.security and java.util.zip are not available on GWT.
+     */
+    public static String hash(byte[] data) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : data) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return Long.toHexString(hash);
+    }
+}
@@ -0,0 +1,232 @@
+package com.hzh.chip8emu;
+
+import com.badlogic.gdx.Input;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static com.hzh.chip8emu.Const.*;
+
+/**
+ * Per-ROM metadata: where the ROM lives, its content hash and the settings
+ * parsed from the .txt notes next to it.
+ *
+ * Notes are free text, only lines in the form "Key : value" are read:
+ * Title, Author, Speed (or Clock, in Hz), Quirks and Keymap.
+ * e.g. "Quirks: vy-shift, fixed-i" or "Keymap: UP=5, DOWN=8".
+ */
+public class RomProfile {
+
+    public static final String QUIRK_VY_SHIFT = "vy-shift";
+    public static final String QUIRK_FIXED_I = "fixed-i";
+
+    private String path;
+    private long size;
+    private String hash;
+    // hash of the notes file, empty when the ROM has none
+    private String notesHash = "";
+
+    private String title;
+    private String author;
+    private int clockHz = DEFAULT_CLOCK_HZ;
+
+    // 8XY6/8XYE shift VY into VX, like the COSMAC VIP
+    private boolean vyShift;
+    // FX55/FX65 leave I untouched
+    private boolean fixedI;
+
+    // host key code -> chip8 key, on top of the default layout
+    private Map<Integer, Integer> keyMap = new TreeMap<>();
+
+    public RomProfile(String path, long size, String hash) {
+        this.path = path;
+        this.size = size;
+        this.hash = hash;
+        this.title = baseName(path);
+    }
+
+    public void parseNotes(String notes) {
+        for (String line : notes.split("\r?\n")) {
+            int sep = line.indexOf(':');
+            if (sep <= 0) {
+                continue;
+            }
+            String key = line.substring(0, sep).trim().toLowerCase();
+            String value = line.substring(sep + 1).trim();
+            if (value.isEmpty()) {
+                continue;
+            }
+
+            switch (key) {
+                case "title":
+                    title = value;
+                    break;
+                case "author":
+                    author = value;
+                    break;
+                case "speed":
+                case "clock":
+                    parseClock(value);
+                    break;
+                case "quirks":
+                    parseQuirks(value);
+                    break;
+                case "keymap":
+                    parseKeyMap(value);
+                    break;
+            }
+        }
+    }
+
+    private void parseClock(String value) {
+        String digits = value.replaceAll("[^0-9].*$", "");
+        if (!digits.isEmpty()) {
+            try {
+                setClockHz(Integer.parseInt(digits));
+            } catch (NumberFormatException e) {
+                setClockHz(MAX_CLOCK_HZ);
+            }
+        }
+    }
+
+    public void parseQuirks(String value) {
+        for (String quirk : value.split("[,\\s]+")) {
+            if (QUIRK_VY_SHIFT.equalsIgnoreCase(quirk)) {
+                vyShift = true;
+            } else if (QUIRK_FIXED_I.equalsIgnoreCase(quirk)) {
+                fixedI = true;
+            }
+        }
+    }
+
+    public void parseKeyMap(String value) {
+        for (String pair : value.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) {
+                continue;
+            }
+            int keycode = keycodeOf(pair.substring(0, eq).trim());
+            String chip8Key = pair.substring(eq + 1).trim();
+            if (keycode != -1 && chip8Key.matches("[0-9a-fA-F]")) {
+                keyMap.put(keycode, Integer.parseInt(chip8Key, 16));
+            }
+        }
+    }
+
+    private static int keycodeOf(String name) {
+        int keycode = Input.Keys.valueOf(name);
+        if (keycode == -1 && !name.isEmpty()) {
+            // key names are capitalized, e.g. "Up" or "Numpad 1"
+            keycode = Input.Keys.valueOf(name.substring(0, 1).toUpperCase() + name.substring(1).toLowerCase());
+        }
+        return keycode;
+    }
+
+    public String formatQuirks() {
+        StringBuilder sb = new StringBuilder();
+        if (vyShift) {
+            sb.append(QUIRK_VY_SHIFT);
+        }
+        if (fixedI) {
+            sb.append(sb.length() > 0 ? "," : "").append(QUIRK_FIXED_I);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Index form of the keymap, e.g. "51=5,47=8". Key codes rather than names,
+     * the COMMA and EQUALS keys are named "," and "=".
+     */
+    public String formatKeyCodes() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Integer, Integer> entry : keyMap.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey())
+                    .append('=')
+                    .append(Integer.toHexString(entry.getValue()));
+        }
+        return sb.toString();
+    }
+
+    public void parseKeyCodes(String value) {
+        for (String pair : value.split(",")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                keyMap.put(Integer.parseInt(pair.substring(0, eq)), Integer.parseInt(pair.substring(eq + 1), 16));
+            }
+        }
+    }
+
+    public static String baseName(String path) {
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public String getName() {
+        return baseName(path);
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getNotesHash() {
+        return notesHash;
+    }
+
+    public void setNotesHash(String notesHash) {
+        this.notesHash = notesHash;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public int getClockHz() {
+        return clockHz;
+    }
+
+    public void setClockHz(int clockHz) {
+        this.clockHz = Math.max(MIN_CLOCK_HZ, Math.min(clockHz, MAX_CLOCK_HZ));
+    }
+
+    public boolean isVyShift() {
+        return vyShift;
+    }
+
+    public boolean isFixedI() {
+        return fixedI;
+    }
+
+    public Map<Integer, Integer> getKeyMap() {
+        return keyMap;
+    }
+
+    @Override
+    public String toString() {
+        return getName() + " [" + hash + ", " + clockHz + "Hz]";
+    }
+}
@@ -4,8 +4,9 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import com.hzh.chip8emu.Chip8Emu;
 import com.hzh.chip8emu.Chip8VM;
+import com.hzh.chip8emu.CpuDriver;
 
-import java.util.concurrent.TimeUnit;
+import static com.hzh.chip8emu.Const.DEFAULT_ROM;
 
 public class DesktopLauncher {
 	public static void main (String[] arg) {
@@ -15,8 +16,20 @@ public class DesktopLauncher {
 		config.width = 1280;
 		config.height = 640;
 
+		// optional rom path, hash or part of its name, e.g. "Tetris"
+		String rom = DEFAULT_ROM;
+		// --frame runs the VM from render() like the html build instead of on its own thread
+		CpuDriver cpuDriver = new ThreadCpuDriver();
+		for (String a : arg) {
+			if ("--frame".equals(a)) {
+				cpuDriver = null;
+			} else {
+				rom = a;
+			}
+		}
+
         Chip8VM chip8VM = new Chip8VM();
-		new LwjglApplication(new Chip8Emu(config.width, chip8VM), config);
+		new LwjglApplication(new Chip8Emu(config.width, chip8VM, rom, cpuDriver), config);
 
 	}
 }
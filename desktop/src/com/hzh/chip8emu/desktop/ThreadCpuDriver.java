@@ -0,0 +1,36 @@
+package com.hzh.chip8emu.desktop;
+
+import com.badlogic.gdx.utils.TimeUtils;
+import com.hzh.chip8emu.CpuDriver;
+import com.hzh.chip8emu.CycleScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static com.hzh.chip8emu.Const.TIMER_HZ;
+
+public class ThreadCpuDriver implements CpuDriver {
+
+    private ExecutorService service = Executors.newSingleThreadExecutor();
+
+    @Override
+    public void start(CycleScheduler scheduler) {
+        service.execute(() -> {
+            while (true) {
+                // run everything due since the last pass, the scheduler carries leftover time
+                scheduler.run(TimeUtils.nanoTime());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(1000 / TIMER_HZ);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void dispose() {
+        service.shutdownNow();
+    }
+}
@@ -48,6 +48,7 @@ public class HtmlLauncher extends GwtApplication {
         @Override
         public ApplicationListener createApplicationListener () {
                 Chip8VM chip8VM = new Chip8VM();
+                // no CpuDriver: the VM runs from render(), driven by requestAnimationFrame
                 return new Chip8Emu(640, chip8VM);
         }
 }
\ No newline at end of file